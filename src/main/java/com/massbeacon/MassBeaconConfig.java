@@ -56,4 +56,13 @@ public interface MassBeaconConfig extends Config
             position = 5
     )
     default boolean showOverlay() { return true; }
+
+    @Range(min = 0, max = 20000)
+    @ConfigItem(
+            keyName = "tickBudgetMicros",
+            name = "Tick budget (µs)",
+            description = "Warn when MassBeacon's work on the client thread exceeds this many microseconds in a tick. 0 disables.",
+            position = 6
+    )
+    default int tickBudgetMicros() { return 500; }
 }
@@ -15,11 +15,14 @@ import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.Player;
+import net.runelite.api.WorldView;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
@@ -49,6 +52,8 @@ public class MassBeaconPlugin extends Plugin
     private static final boolean NETWORK_BEACONS_ENABLED = true;
     private static final boolean INCLUDE_PLAYER_COUNT = true;
     private static final int AUTO_POST_INTERVAL_SEC = 15; // post cadence
+    private static final int TICK_REPORT_INTERVAL_SEC = 30; // tick budget overrun report cadence
+    private static final int TICK_DRAIN_INTERVAL_MS = 600; // one game tick
 
     private static final URI BEACON_ENDPOINT = URI.create(
             "https://massbeacon-worker.dskill4.workers.dev/beacon"
@@ -67,6 +72,8 @@ public class MassBeaconPlugin extends Plugin
 
     private ScheduledFuture<?> fetchTask;
     private ScheduledFuture<?> autoPostTask;
+    private ScheduledFuture<?> tickReportTask;
+    private ScheduledFuture<?> tickDrainTask;
     private volatile Instant lastPost = Instant.EPOCH;
 
     public static final class WorldCount { public int world; public int count; }
@@ -76,13 +83,46 @@ public class MassBeaconPlugin extends Plugin
     private String lastDiscordSig = null;
     private Instant lastDiscordAt = Instant.EPOCH;
 
-    // region tracking
-    volatile int lastRegionId = -1;
+    // region tracking; executor-owned, reset by the drain when it sees no tick state
     private int lastLoggedRegion = -1;
+    private long lastDrainedSeq = -1; // executor-owned
 
-    // track whether we are currently inside the target area (for clearing overlay when we leave)
+    // track whether we are currently inside the target area (for clearing overlay when we leave); executor-owned
     private boolean wasInTargetArea = false;
 
+    /**
+     * Compact per-tick snapshot published by the client thread.
+     * Everything derived from it (activity, area enter/exit, logging) runs on the executor.
+     */
+    static final class TickState
+    {
+        final long seq;
+        final int regionId;
+        final int world;
+        final int plane;
+        final int players;
+
+        TickState(long seq, int regionId, int world, int plane, int players)
+        {
+            this.seq = seq;
+            this.regionId = regionId;
+            this.world = world;
+            this.plane = plane;
+            this.players = players;
+        }
+    }
+
+    // latest-value slot: the client thread publishes it each tick, the executor polls it.
+    // It is also cleared (set to null) on game state changes and by startUp/shutDown.
+    // null means not ready (logged out, hopping, or no local player yet).
+    private volatile TickState tickState = null;
+    private long tickSeq = 0; // client thread only
+
+    // tick budget guard (config cached so the client thread never goes through ConfigManager)
+    private volatile long tickBudgetNanos = 0;
+    private final AtomicInteger tickOverruns = new AtomicInteger();
+    private final AtomicLong worstOverrunNanos = new AtomicLong();
+
     private static final String CFG_GROUP = "massbeacon";
     private static final String[] DEPRECATED_KEYS = {
             "autoPost", "beaconEndpoint", "copyHotkey",
@@ -106,9 +146,24 @@ public class MassBeaconPlugin extends Plugin
     {
         for (String k : DEPRECATED_KEYS) { configManager.unsetConfiguration(CFG_GROUP, k); }
         overlayManager.add(overlay);
+        updateTickBudget();
+        tickState = null; // never carry a snapshot over from a previous session
+        executor.execute(this::resetTickTracking); // runs before the first drain below
 
         if (NETWORK_BEACONS_ENABLED) scheduleFetch();
         if (AUTO_POST_ENABLED)       scheduleAutoPost();
+        tickDrainTask = executor.scheduleWithFixedDelay(
+                this::drainTickStateSafe,
+                TICK_DRAIN_INTERVAL_MS,
+                TICK_DRAIN_INTERVAL_MS,
+                TimeUnit.MILLISECONDS
+        );
+        tickReportTask = executor.scheduleWithFixedDelay(
+                this::reportTickOverrunsSafe,
+                TICK_REPORT_INTERVAL_SEC,
+                TICK_REPORT_INTERVAL_SEC,
+                TimeUnit.SECONDS
+        );
 
         log.info("MassBeacon started.");
     }
@@ -118,67 +173,157 @@ public class MassBeaconPlugin extends Plugin
     {
         if (fetchTask != null) { fetchTask.cancel(true); fetchTask = null; }
         if (autoPostTask != null) { autoPostTask.cancel(true); autoPostTask = null; }
+        if (tickDrainTask != null) { tickDrainTask.cancel(true); tickDrainTask = null; }
+        if (tickReportTask != null) { tickReportTask.cancel(true); tickReportTask = null; }
         latestWorlds = Collections.emptyList();
+        tickState = null; // a tick already in flight may re-publish; startUp clears it again
+        tickOverruns.set(0);
+        worstOverrunNanos.set(0);
         lastDiscordSig = null;
         lastDiscordAt = Instant.EPOCH;
         overlayManager.remove(overlay);
         log.info("MassBeacon stopped.");
     }
 
-    // ---------- Region change logger + leave detection ----------
+    // ---------- Tick publish (client thread) ----------
+    // Keep this minimal: the client thread is shared by every plugin.
     @Subscribe
     public void onGameTick(GameTick e)
     {
-        if (client.getLocalPlayer() == null) return;
-        WorldPoint wp = client.getLocalPlayer().getWorldLocation();
+        final long startNanos = System.nanoTime();
+
+        final Player local = client.getLocalPlayer();
+        if (local == null) return;
+        final WorldPoint wp = local.getWorldLocation();
         if (wp == null) return;
 
-        int r = wp.getRegionID();
-        lastRegionId = r;
+        tickState = new TickState(++tickSeq, wp.getRegionID(), client.getWorld(), wp.getPlane(), countPlayers());
+
+        checkTickBudget(startNanos);
+    }
+
+    /** Client thread only. Walks the world view's player set directly instead of copying it into a list. */
+    private int countPlayers()
+    {
+        final WorldView wv = client.getTopLevelWorldView();
+        if (wv == null) return 0;
+        int c = 0;
+        for (Player p : wv.players()) { if (p != null) c++; }
+        return c;
+    }
+
+    private void checkTickBudget(long startNanos)
+    {
+        final long budget = tickBudgetNanos;
+        if (budget <= 0) return;
+        final long elapsed = System.nanoTime() - startNanos;
+        if (elapsed > budget)
+        {
+            worstOverrunNanos.accumulateAndGet(elapsed, Math::max);
+            tickOverruns.incrementAndGet();
+        }
+    }
+
+    private void updateTickBudget()
+    {
+        tickBudgetNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, config.tickBudgetMicros()));
+    }
+
+    // ---------- Region change logger + leave detection (executor) ----------
+    private void drainTickStateSafe()
+    {
+        try
+        {
+            final TickState s = tickState;
+            if (s == null)
+            {
+                // leave wasInTargetArea alone so the first tick back outside the area still clears the overlay
+                lastLoggedRegion = -1;
+                return;
+            }
+            if (s.seq == lastDrainedSeq) return;
+            lastDrainedSeq = s.seq;
+            processTickState(s);
+        }
+        catch (Exception e) { log.debug("Tick processing failed", e); }
+    }
+
+    private void resetTickTracking()
+    {
+        lastLoggedRegion = -1;
+        lastDrainedSeq = -1;
+        wasInTargetArea = false;
+    }
+
+    private void processTickState(TickState s)
+    {
+        final int r = s.regionId;
 
         if (r != lastLoggedRegion)
         {
             lastLoggedRegion = r;
-            log.info("MassBeacon: region change -> region={} x={} y={} plane={} inBA={} inCorp={}",
-                    r, wp.getX(), wp.getY(), wp.getPlane(), rawIsInBA(r), rawIsInCorp(r));
+            log.info("MassBeacon: region change -> region={} world={} plane={} players={} inBA={} inCorp={}",
+                    r, s.world, s.plane, s.players, rawIsInBA(r), rawIsInCorp(r));
         }
 
         // Detect entering/exiting target area and clear overlay on exit
-        boolean inAreaNow = resolveActivityOrNull() != null;
+        boolean inAreaNow = resolveActivityOrNull(r) != null;
         if (inAreaNow != wasInTargetArea)
         {
             if (!inAreaNow && !latestWorlds.isEmpty())
             {
                 latestWorlds = Collections.emptyList();
-                log.info("MassBeacon: left target area (region={}), overlay cleared", lastRegionId);
+                log.info("MassBeacon: left target area (region={}), overlay cleared", r);
             }
             wasInTargetArea = inAreaNow;
         }
     }
 
+    private void reportTickOverrunsSafe()
+    {
+        try
+        {
+            // reset worst first; a concurrent overrun may land its count in the next report
+            final long worst = worstOverrunNanos.getAndSet(0);
+            final int overruns = tickOverruns.getAndSet(0);
+            if (overruns == 0) return;
+            log.warn("MassBeacon: {} tick(s) over budget of {}us in the last {}s (worst {}us)",
+                    overruns, TimeUnit.NANOSECONDS.toMicros(tickBudgetNanos), TICK_REPORT_INTERVAL_SEC,
+                    TimeUnit.NANOSECONDS.toMicros(worst));
+        }
+        catch (Exception e) { log.debug("Tick overrun report failed", e); }
+    }
+
     // ---------- One-shot POST/FETCH on login ----------
     @Subscribe
     public void onGameStateChanged(GameStateChanged e)
     {
-        if (e.getGameState() == GameState.LOGGED_IN)
+        final GameState gs = e.getGameState();
+        if (gs == GameState.LOGGED_IN)
         {
             executor.schedule(this::debugImmediatePostAndFetch, 1, TimeUnit.SECONDS);
         }
+        else if (gs != GameState.LOADING)
+        {
+            // LOADING happens on every map-chunk crossing while still logged in; anything else ends the session
+            tickState = null;
+        }
     }
 
     private void debugImmediatePostAndFetch()
     {
-        if (!isReadyInGame()) return;
+        final TickState s = tickState;
+        if (s == null) return;
 
-        final String activity = resolveActivityOrNull();
+        final String activity = resolveActivityOrNull(s.regionId);
         if (activity == null)
         {
-            log.info("MassBeacon: immediate tick outside target area; skipping post/fetch (region={})", lastRegionId);
+            log.info("MassBeacon: immediate tick outside target area; skipping post/fetch (region={})", s.regionId);
             return;
         }
 
-        final int world = client.getWorld();
-        final int players = getPlayerCount();
+        final int world = s.world;
+        final int players = s.players;
 
         log.info("MassBeacon: IMMEDIATE POST -> '{}' W{} players={}", activity, world, players);
         doPost(activity, world, players, shouldNotifyDiscord(activity, world, players));
@@ -211,8 +356,9 @@ public class MassBeaconPlugin extends Plugin
     {
         try
         {
-            if (!isReadyInGame()) return;
-            final String activity = resolveActivityOrNull();
+            final TickState s = tickState;
+            if (s == null) return;
+            final String activity = resolveActivityOrNull(s.regionId);
             if (activity == null) return;
             doFetch(activity);
         }
@@ -223,13 +369,14 @@ public class MassBeaconPlugin extends Plugin
     {
         try
         {
-            if (!isReadyInGame()) return;
+            final TickState s = tickState;
+            if (s == null) return;
 
-            final String activity = resolveActivityOrNull();
+            final String activity = resolveActivityOrNull(s.regionId);
             if (activity == null) return; // hard stop outside area
 
-            final int world = client.getWorld();
-            final int players = getPlayerCount();
+            final int world = s.world;
+            final int players = s.players;
             final boolean notifyDiscord = shouldNotifyDiscord(activity, world, players);
 
             log.debug("MassBeacon: POST tick -> '{}' W{} players={} notifyDiscord={}",
@@ -398,12 +545,14 @@ public class MassBeaconPlugin extends Plugin
      * Only operate when actually in the target area (per toggles + region list).
      * Returns null outside area.
      */
-    private String resolveActivityOrNull()
+    private String resolveActivityOrNull(int regionId)
     {
+        if (regionId == -1) return null;
+
         final boolean wantBA   = config.onlyAtBA();
         final boolean wantCorp = config.onlyAtCorp();
-        final boolean inBA     = isInBARegion();
-        final boolean inCorp   = isInCorpRegion();
+        final boolean inBA     = rawIsInBA(regionId);
+        final boolean inCorp   = rawIsInCorp(regionId);
 
         if (wantBA && inBA)     return "Barbarian Assault";
         if (wantCorp && inCorp) return "Corporeal Beast";
@@ -416,22 +565,6 @@ public class MassBeaconPlugin extends Plugin
         return null;
     }
 
-    private boolean isInBARegion()
-    {
-        int r = currentRegionId();
-        if (r == -1) return false;
-        for (int id : BA_REGIONS) if (r == id) return true;
-        return false;
-    }
-
-    private boolean isInCorpRegion()
-    {
-        int r = currentRegionId();
-        if (r == -1) return false;
-        for (int id : CORP_REGIONS) if (r == id) return true;
-        return false;
-    }
-
     private boolean rawIsInBA(int regionId)
     {
         for (int id : BA_REGIONS) if (regionId == id) return true;
@@ -444,35 +577,9 @@ public class MassBeaconPlugin extends Plugin
         return false;
     }
 
-    private int currentRegionId()
-    {
-        if (client.getLocalPlayer() == null) return -1;
-        WorldPoint wp = client.getLocalPlayer().getWorldLocation();
-        if (wp == null) return -1;
-        lastRegionId = wp.getRegionID();
-        return lastRegionId;
-    }
-
-    private boolean isReadyInGame()
-    {
-        return client.getGameState() == GameState.LOGGED_IN && client.getLocalPlayer() != null;
-    }
-
-    private int getPlayerCount()
-    {
-        try
-        {
-            if (client.getGameState() != GameState.LOGGED_IN) return 0;
-            int c = 0; for (Player p : client.getPlayers()) { if (p != null) c++; }
-            return c;
-        }
-        catch (Exception e) { return 0; }
-    }
-
     private boolean shouldNotifyDiscord(String activity, int world, int players)
     {
-        if (players <= 0) return false;
-        if (client.getGameState() != GameState.LOGGED_IN) return false;
+        if (players <= 0) return false; // callers only get here with a published tick state, i.e. logged in
 
         String sig = discordSig(activity, world, players);
         if (sig.equals(lastDiscordSig) && Instant.now().isBefore(lastDiscordAt.plusSeconds(60))) return false;
@@ -511,5 +618,9 @@ public class MassBeaconPlugin extends Plugin
         {
             if (NETWORK_BEACONS_ENABLED) scheduleFetch();
         }
+        else if ("tickBudgetMicros".equals(e.getKey()))
+        {
+            updateTickBudget();
+        }
     }
 }